@@ -27,8 +27,9 @@ echo "This will open a Chrome browser window and scrape the JBL website."
 echo "Press Ctrl+C to stop the scraper if needed."
 echo ""
 
-# Run the scraper
-mvn exec:java -Dexec.mainClass="JBLScrapper"
+# Run the scraper (extra arguments are passed to Maven, e.g. -Djbl.archive.mode=capture or replay)
+# Daemon mode stays running between crawls: -Djbl.daemon=true -Djbl.categories=categories.json
+mvn exec:java -Dexec.mainClass="JBLScrapper" "$@"
 
 echo ""
 echo "Scraping completed!"
@@ -0,0 +1,339 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Long-running mode that keeps the JVM and browser session resident.
+ *
+ * Crawls run on a cron or fixed-interval schedule, never overlapping, and the
+ * latest results are served from an in-memory snapshot over a local HTTP endpoint:
+ * GET /status, GET /results and POST /crawl to trigger a run immediately.
+ */
+public class CrawlDaemon {
+
+    private final JBLScrapper scraper;
+    private final String categoryFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Scheduling and crawling use separate threads so a slow crawl never delays the schedule
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService crawlExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean crawling = new AtomicBoolean();
+    private final AtomicReference<CrawlSnapshot> latest = new AtomicReference<>();
+    private final AtomicLong runCounter = new AtomicLong();
+    private final CountDownLatch shutdownLatch = new CountDownLatch(1);
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String scheduleDescription;
+    private long categoryFileModified;
+    private volatile ZonedDateTime nextRunAt;
+    private volatile Instant currentRunStartedAt;
+
+    // Immutable result of one completed crawl
+    public static class CrawlSnapshot {
+        private final long run;
+        private final String trigger;
+        private final String startedAt;
+        private final String finishedAt;
+        private final long durationMillis;
+        private final String status;
+        private final String error;
+        private final List<JBLScrapper.Product> products;
+
+        public CrawlSnapshot(long run, String trigger, Instant startedAt, Instant finishedAt,
+                             boolean cancelled, String error, List<JBLScrapper.Product> products) {
+            this.run = run;
+            this.trigger = trigger;
+            this.startedAt = startedAt.toString();
+            this.finishedAt = finishedAt.toString();
+            this.durationMillis = Duration.between(startedAt, finishedAt).toMillis();
+            this.status = cancelled ? "cancelled" : error == null ? "succeeded" : "failed";
+            this.error = error;
+            this.products = Collections.unmodifiableList(products);
+        }
+
+        public long getRun() { return run; }
+        public String getTrigger() { return trigger; }
+        public String getStartedAt() { return startedAt; }
+        public String getFinishedAt() { return finishedAt; }
+        public long getDurationMillis() { return durationMillis; }
+        public String getStatus() { return status; }
+        public String getError() { return error; }
+        public int getProductCount() { return products.size(); }
+        public List<JBLScrapper.Product> getProducts() { return products; }
+    }
+
+    public CrawlDaemon(JBLScrapper scraper, String categoryFile) {
+        this.scraper = scraper;
+        this.categoryFile = categoryFile;
+        if (categoryFile != null) {
+            this.categoryFileModified = new File(categoryFile).lastModified();
+        }
+    }
+
+    /**
+     * Start the HTTP endpoint and the crawl schedule; a cron expression takes precedence over the interval
+     */
+    public void start(String cronExpression, long intervalMinutes, int port) throws IOException {
+        // Validate the schedule before anything is started, so a bad setting cannot leave the endpoint running
+        CronSchedule schedule = null;
+        if (cronExpression != null && !cronExpression.trim().isEmpty()) {
+            schedule = new CronSchedule(cronExpression);
+            schedule.nextAfter(ZonedDateTime.now());
+        } else if (intervalMinutes <= 0) {
+            throw new IllegalArgumentException("Crawl interval must be positive: " + intervalMinutes);
+        }
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/status", this::handleStatus);
+        server.createContext("/results", this::handleResults);
+        server.createContext("/crawl", this::handleCrawl);
+        serverExecutor = Executors.newFixedThreadPool(2);
+        server.setExecutor(serverExecutor);
+        server.start();
+        System.out.println("Daemon endpoint listening at http://127.0.0.1:" + server.getAddress().getPort());
+
+        if (schedule != null) {
+            scheduleDescription = "cron " + schedule;
+            // Crawl once right away so the endpoint has results before the first cron time
+            triggerCrawl("startup");
+            scheduleNext(schedule);
+        } else {
+            scheduleDescription = "every " + intervalMinutes + " minutes";
+            scheduler.scheduleAtFixedRate(() -> {
+                nextRunAt = ZonedDateTime.now().plusMinutes(intervalMinutes);
+                triggerCrawl("schedule");
+            }, 0, intervalMinutes, TimeUnit.MINUTES);
+        }
+        System.out.println("Crawling " + scheduleDescription);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+    }
+
+    /**
+     * Block until the daemon is stopped
+     */
+    public void awaitShutdown() throws InterruptedException {
+        shutdownLatch.await();
+    }
+
+    /**
+     * Stop scheduling, the endpoint and the browser
+     */
+    public void stop() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        System.out.println("Stopping daemon...");
+        if (server != null) {
+            server.stop(0);
+            serverExecutor.shutdown();
+        }
+        scheduler.shutdownNow();
+        scraper.cancel();
+        crawlExecutor.shutdownNow();
+
+        // The crawl thread may still be inside a WebDriver call; only quit the browser once it has ended
+        boolean crawlEnded = false;
+        try {
+            crawlEnded = crawlExecutor.awaitTermination(30, TimeUnit.SECONDS);
+            if (!crawlEnded) {
+                System.out.println("Waiting for the running crawl to stop...");
+                crawlEnded = crawlExecutor.awaitTermination(90, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (crawlEnded) {
+            scraper.closeDriver();
+        } else {
+            System.err.println("Crawl did not stop; leaving the browser session open");
+        }
+        shutdownLatch.countDown();
+    }
+
+    /**
+     * Start a crawl unless one is already running
+     */
+    public boolean triggerCrawl(String trigger) {
+        if (!crawling.compareAndSet(false, true)) {
+            System.out.println("Skipping " + trigger + " crawl: previous crawl still running");
+            return false;
+        }
+        try {
+            crawlExecutor.execute(() -> {
+                try {
+                    runCrawl(trigger);
+                } finally {
+                    crawling.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            crawling.set(false);
+            return false;
+        }
+    }
+
+    private void scheduleNext(CronSchedule schedule) {
+        ZonedDateTime now = ZonedDateTime.now();
+        nextRunAt = schedule.nextAfter(now);
+        try {
+            scheduler.schedule(() -> {
+                triggerCrawl("schedule");
+                scheduleNext(schedule);
+            }, Duration.between(now, nextRunAt).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Daemon is stopping
+        }
+    }
+
+    private void runCrawl(String trigger) {
+        Instant startedAt = Instant.now();
+        currentRunStartedAt = startedAt;
+        String error = null;
+        System.out.println("\n=== Starting " + trigger + " crawl ===");
+
+        try {
+            reloadCategoriesIfChanged();
+            if (!scraper.isDriverAlive()) {
+                scraper.restartDriver();
+            }
+
+            scraper.resetResults();
+            scraper.crawlMultiplePages();
+
+            // Don't overwrite the saved results with a partial crawl
+            if (!isCancelled()) {
+                scraper.saveToCSV("jbl_products.csv");
+                scraper.saveToJSON("jbl_products.json");
+            }
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.toString();
+            System.err.println("Error during " + trigger + " crawl: " + error);
+        }
+
+        CrawlSnapshot snapshot = new CrawlSnapshot(runCounter.incrementAndGet(), trigger, startedAt,
+                Instant.now(), isCancelled(), error, scraper.getProducts());
+        latest.set(snapshot);
+        currentRunStartedAt = null;
+        System.out.println("Crawl " + snapshot.getRun() + " " + snapshot.getStatus() + " with "
+                + snapshot.getProductCount() + " products in " + snapshot.getDurationMillis() + " ms");
+    }
+
+    /**
+     * Whether the running crawl was cut short by stop(), leaving partial results
+     */
+    private boolean isCancelled() {
+        return stopped.get() || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Pick up edits to the category file without restarting the daemon
+     */
+    private void reloadCategoriesIfChanged() {
+        if (categoryFile == null) {
+            return;
+        }
+        long modified = new File(categoryFile).lastModified();
+        if (modified == categoryFileModified) {
+            return;
+        }
+        try {
+            scraper.loadCategories(categoryFile);
+            categoryFileModified = modified;
+        } catch (IOException e) {
+            // Keep crawling the previous categories until the file is fixed
+            System.err.println("Error reloading categories: " + e.getMessage());
+        }
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        Map<String, Object> status = new LinkedHashMap<>();
+        Instant runningSince = currentRunStartedAt;
+        status.put("state", crawling.get() ? "running" : "idle");
+        status.put("runningSince", runningSince != null ? runningSince.toString() : null);
+        status.put("schedule", scheduleDescription);
+        status.put("nextRunAt", nextRunAt != null ? nextRunAt.toString() : null);
+        status.put("completedRuns", runCounter.get());
+
+        List<Map<String, String>> categories = new ArrayList<>();
+        for (String[] category : scraper.getCategories()) {
+            Map<String, String> entry = new LinkedHashMap<>();
+            entry.put("url", category[0]);
+            entry.put("name", category[1]);
+            categories.add(entry);
+        }
+        status.put("categories", categories);
+
+        CrawlSnapshot snapshot = latest.get();
+        if (snapshot != null) {
+            Map<String, Object> lastRun = new LinkedHashMap<>();
+            lastRun.put("run", snapshot.getRun());
+            lastRun.put("trigger", snapshot.getTrigger());
+            lastRun.put("startedAt", snapshot.getStartedAt());
+            lastRun.put("finishedAt", snapshot.getFinishedAt());
+            lastRun.put("durationMillis", snapshot.getDurationMillis());
+            lastRun.put("status", snapshot.getStatus());
+            lastRun.put("error", snapshot.getError());
+            lastRun.put("productCount", snapshot.getProductCount());
+            status.put("lastRun", lastRun);
+        }
+
+        // Metrics of the running crawl, or of the last one while idle
+        ProductPipeline pipeline = scraper.getProductPipeline();
+        Map<String, Object> pipelineStatus = new LinkedHashMap<>();
+        pipelineStatus.put("queueDepth", pipeline.getQueueDepth());
+        pipelineStatus.put("maxQueueDepth", pipeline.getMaxQueueDepth());
+        pipelineStatus.put("rejected", pipeline.getRejected());
+        pipelineStatus.put("duplicates", pipeline.getDuplicates());
+        pipelineStatus.put("stages", pipeline.getStageMetrics());
+        status.put("pipeline", pipelineStatus);
+
+        respond(exchange, 200, status);
+    }
+
+    private void handleResults(HttpExchange exchange) throws IOException {
+        CrawlSnapshot snapshot = latest.get();
+        if (snapshot == null) {
+            respond(exchange, 503, Collections.singletonMap("error", "No crawl has completed yet"));
+            return;
+        }
+        respond(exchange, 200, snapshot);
+    }
+
+    private void handleCrawl(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, Collections.singletonMap("error", "Use POST to start a crawl"));
+            return;
+        }
+        if (triggerCrawl("manual")) {
+            respond(exchange, 202, Collections.singletonMap("status", "started"));
+        } else {
+            respond(exchange, 409, Collections.singletonMap("status", "already running"));
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
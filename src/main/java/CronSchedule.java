@@ -0,0 +1,139 @@
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * Minimal five-field cron expression: minute hour day-of-month month day-of-week.
+ *
+ * Each field accepts "*", numbers, ranges ("1-5"), lists ("0,30") and steps ("0-30/10").
+ * Day of week runs 0-7 with both 0 and 7 meaning Sunday.
+ *
+ * Fields are matched against local wall-clock time. A time skipped by a daylight-saving
+ * jump fires at the same instant just after the jump (02:30 becomes 03:30), and an hour
+ * that repeats when clocks go back only fires once.
+ */
+public class CronSchedule {
+
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    public CronSchedule(String expression) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Cron expression needs 5 fields: " + expression);
+        }
+
+        this.expression = expression.trim();
+        this.minutes = parseField(fields[0], 0, 59);
+        this.hours = parseField(fields[1], 0, 23);
+        this.daysOfMonth = parseField(fields[2], 1, 31);
+        this.months = parseField(fields[3], 1, 12);
+        this.daysOfWeek = parseField(fields[4], 0, 7);
+        this.anyDayOfMonth = fields[2].equals("*");
+        this.anyDayOfWeek = fields[4].equals("*");
+
+        // 7 is an alias for Sunday
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+        }
+    }
+
+    /**
+     * First matching time strictly after the given time
+     */
+    public ZonedDateTime nextAfter(ZonedDateTime time) {
+        // Walk local time so wall-clock times inside a DST gap are still visited
+        LocalDateTime candidate = time.toLocalDateTime().truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDateTime limit = candidate.plusYears(5);
+
+        while (candidate.isBefore(limit)) {
+            if (!months.get(candidate.getMonthValue()) || !matchesDay(candidate)) {
+                candidate = candidate.toLocalDate().plusDays(1).atStartOfDay();
+            } else if (!hours.get(candidate.getHour())) {
+                candidate = candidate.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!minutes.get(candidate.getMinute())) {
+                candidate = candidate.plusMinutes(1);
+            } else {
+                // ofLocal moves gap times forward; in an overlap the earlier match may not be after time
+                ZonedDateTime result = ZonedDateTime.ofLocal(candidate, time.getZone(), time.getOffset());
+                if (result.isAfter(time)) {
+                    return result;
+                }
+                candidate = candidate.plusMinutes(1);
+            }
+        }
+        throw new IllegalStateException("Cron expression never fires: " + expression);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private boolean matchesDay(LocalDateTime time) {
+        boolean dayOfMonth = daysOfMonth.get(time.getDayOfMonth());
+        boolean dayOfWeek = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+
+        // Like standard cron, a restricted day-of-month and day-of-week match if either does
+        if (anyDayOfMonth) {
+            return dayOfWeek;
+        } else if (anyDayOfWeek) {
+            return dayOfMonth;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    private static BitSet parseField(String field, int min, int max) {
+        BitSet values = new BitSet(max + 1);
+
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, field);
+                part = part.substring(0, slash);
+            }
+
+            int start;
+            int end;
+            if (part.equals("*")) {
+                start = min;
+                end = max;
+            } else if (part.contains("-")) {
+                String[] range = part.split("-", 2);
+                start = parseNumber(range[0], min, max, field);
+                end = parseNumber(range[1], min, max, field);
+            } else {
+                start = parseNumber(part, min, max, field);
+                end = slash >= 0 ? max : start;
+            }
+
+            if (start > end) {
+                throw new IllegalArgumentException("Invalid range in cron field: " + field);
+            }
+            for (int value = start; value <= end; value += step) {
+                values.set(value);
+            }
+        }
+        return values;
+    }
+
+    private static int parseNumber(String value, int min, int max, String field) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < min || number > max) {
+                throw new IllegalArgumentException("Value out of range in cron field: " + field);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cron field: " + field);
+        }
+    }
+}
@@ -14,6 +14,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import java.io.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -24,11 +28,34 @@ public class JBLScrapper {
     private WebDriverWait wait;
     private List<Product> products;
     private ObjectMapper objectMapper;
+    private ProductPipeline productPipeline;
+    
+    // Category pages to crawl as {url, name}; replaced by loadCategories()
+    private volatile List<String[]> categories = Arrays.asList(
+        new String[]{"https://ca.jbl.com/en_CA/home-audio/", "Home Audio"},
+        new String[]{"https://ca.jbl.com/en_CA/party-speakers/", "Party Speakers"},
+        new String[]{"https://ca.jbl.com/en_CA/sale/", "Sale"},
+        new String[]{"https://ca.jbl.com/en_CA/bluetooth-speakers/", "Bluetooth Speakers"}
+    );
+    
+    // Record-and-replay page archive ("off", "capture" or "replay")
+    private String archiveMode = "off";
+    private PageArchive pageArchive;
+    private ReplayServer replayServer;
+    private HttpClient captureClient;
+    
+    // Archive key of the page the browser is on; synthetic when pagination does not change the URL
+    private String currentPageUrl;
+    private boolean currentPageFetchable;
+    
+    // Set by cancel() from another thread; checked before each category and page
+    private volatile boolean cancelled;
     
     // Product data class
     public static class Product {
         private String name;
         private String price;
+        private Double priceValue;
         private String originalPrice;
         private String discount;
         private String availability;
@@ -56,6 +83,9 @@ public class JBLScrapper {
         public String getPrice() { return price; }
         public void setPrice(String price) { this.price = price; }
         
+        public Double getPriceValue() { return priceValue; }
+        public void setPriceValue(Double priceValue) { this.priceValue = priceValue; }
+        
         public String getOriginalPrice() { return originalPrice; }
         public void setOriginalPrice(String originalPrice) { this.originalPrice = originalPrice; }
         
@@ -92,8 +122,119 @@ public class JBLScrapper {
     }
     
     public JBLScrapper() {
-        this.products = new ArrayList<>();
+        this.products = Collections.synchronizedList(new ArrayList<>());
         this.objectMapper = new ObjectMapper();
+        this.productPipeline = new ProductPipeline(
+            Integer.getInteger("jbl.pipeline.queueCapacity", 256),
+            Integer.getInteger("jbl.pipeline.workers", Runtime.getRuntime().availableProcessors()),
+            products::add);
+    }
+    
+    /**
+     * Configure the page archive: "capture" records every visited page, "replay" serves
+     * a previously captured archive from a local server instead of the live site
+     */
+    public void configurePageArchive(String mode, String directory, long latencyMillis, int port) throws IOException {
+        this.archiveMode = mode == null ? "off" : mode.trim().toLowerCase();
+        
+        switch (archiveMode) {
+            case "capture":
+                this.pageArchive = new PageArchive(new File(directory), objectMapper);
+                this.captureClient = HttpClient.newBuilder()
+                        .followRedirects(HttpClient.Redirect.NORMAL)
+                        .connectTimeout(Duration.ofSeconds(20))
+                        .build();
+                System.out.println("Capturing pages to archive: " + directory);
+                break;
+            case "replay":
+                this.pageArchive = new PageArchive(new File(directory), objectMapper);
+                if (pageArchive.size() == 0) {
+                    throw new IOException("Page archive is empty: " + directory);
+                }
+                this.replayServer = new ReplayServer(pageArchive, latencyMillis);
+                replayServer.start(port);
+                break;
+            case "off":
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown archive mode: " + mode);
+        }
+    }
+    
+    private boolean isReplaying() {
+        return "replay".equals(archiveMode);
+    }
+    
+    /**
+     * Sleep used to let live pages settle; skipped when replaying static archived pages
+     */
+    private void pause(long millis) throws InterruptedException {
+        if (!isReplaying()) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                // Keep the flag set so the crawl loops still see it after a catch (Exception) swallows this
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Ask the running crawl to stop before its next category or page
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    private boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+    
+    /**
+     * Record the rendered DOM of the current page in the archive, plus the raw body and
+     * headers from a separate plain HTTP request when the page has a real URL
+     */
+    private void capturePage(String url, boolean fetchRaw) {
+        try {
+            String renderedDom = driver.getPageSource();
+            int rawStatus = 0;
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            String body = null;
+            
+            if (fetchRaw) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                        .header("User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36")
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build();
+                HttpResponse<String> response = captureClient.send(request, HttpResponse.BodyHandlers.ofString());
+                rawStatus = response.statusCode();
+                
+                // The side request is not what Chrome rendered; keep only what agrees with the browser load
+                if (rawStatus >= 200 && rawStatus < 300) {
+                    response.headers().map().forEach((name, values) -> headers.put(name.toLowerCase(), values));
+                    body = response.body();
+                } else {
+                    System.out.println("Raw fetch of " + url + " returned " + rawStatus + "; archiving browser DOM only");
+                }
+            }
+            
+            pageArchive.record(url, rawStatus, headers, body, renderedDom);
+            System.out.println("Captured page to archive: " + url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Error capturing " + url + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Archive key for a pagination step that did not change the browser URL
+     */
+    private static String pagedUrl(String url, int page) {
+        String base = url.replaceAll("[?&]jblPage=\\d+$", "");
+        return base + (base.contains("?") ? "&" : "?") + "jblPage=" + page;
     }
     
     /**
@@ -116,11 +257,12 @@ public class JBLScrapper {
         
         // Initialize driver
         this.driver = new ChromeDriver(options);
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(20));
+        this.wait = new WebDriverWait(driver, Duration.ofSeconds(isReplaying() ? 2 : 20));
         
         // Maximize window
         driver.manage().window().maximize();
-        driver.manage().timeouts().implicitlyWait(10, TimeUnit.SECONDS);
+        // Archived pages are fully rendered, so missing elements will never appear later
+        driver.manage().timeouts().implicitlyWait(isReplaying() ? 0 : 10, TimeUnit.SECONDS);
         
         System.out.println("WebDriver initialized successfully!");
     }
@@ -130,14 +272,16 @@ public class JBLScrapper {
      */
     public void navigateToPage(String url, String pageName) {
         System.out.println("Navigating to JBL " + pageName + " page...");
-        driver.get(url);
+        driver.get(isReplaying() ? replayServer.toReplayUrl(url) : url);
+        currentPageUrl = url;
+        currentPageFetchable = true;
         
         // Wait for page to load completely
         wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
         
         // Additional wait for dynamic content
         try {
-            Thread.sleep(2000);
+            pause(2000);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -145,35 +289,69 @@ public class JBLScrapper {
         System.out.println("Successfully navigated to: " + url);
     }
     
+    /**
+     * Load the category pages to crawl from a JSON file of {"url": ..., "name": ...} objects
+     */
+    public void loadCategories(String filename) throws IOException {
+        JsonNode root = objectMapper.readTree(new File(filename));
+        if (!root.isArray() || root.size() == 0) {
+            throw new IOException("Category file must be a non-empty JSON array: " + filename);
+        }
+        
+        List<String[]> loaded = new ArrayList<>();
+        for (JsonNode node : root) {
+            if (!node.hasNonNull("url") || !node.hasNonNull("name")) {
+                throw new IOException("Each category needs a url and a name: " + node);
+            }
+            loaded.add(new String[]{node.get("url").asText(), node.get("name").asText()});
+        }
+        
+        this.categories = Collections.unmodifiableList(loaded);
+        System.out.println("Loaded " + loaded.size() + " categories from " + filename);
+    }
+    
+    public List<String[]> getCategories() {
+        return categories;
+    }
+    
+    public ProductPipeline getProductPipeline() {
+        return productPipeline;
+    }
+    
     /**
      * Navigate to multiple JBL pages and extract data
      */
     public void crawlMultiplePages() {
         System.out.println("Starting multi-page crawling...");
         
-        // Define the pages to crawl
-        String[][] pages = {
-            {"https://ca.jbl.com/en_CA/home-audio/", "Home Audio"},
-            {"https://ca.jbl.com/en_CA/party-speakers/", "Party Speakers"},
-            {"https://ca.jbl.com/en_CA/sale/", "Sale"},
-            {"https://ca.jbl.com/en_CA/bluetooth-speakers/", "Bluetooth Speakers"}
-        };
+        // Take a stable copy so a category reload cannot change the list mid-crawl
+        List<String[]> pages = categories;
         
         for (String[] page : pages) {
+            if (isCancelled()) {
+                System.out.println("Crawl cancelled before " + page[1]);
+                break;
+            }
             try {
                 System.out.println("\n=== Crawling " + page[1] + " ===");
                 navigateToPage(page[0], page[1]);
                 handlePopups();
                 interactWithPageElements();
-                extractProductDataFromCurrentPage();
                 
-                // Try to navigate through multiple pages within each category
-                navigateThroughPages();
+                // Extract the first page and any further pages within the category
+                navigateThroughPages(page[1]);
                 
             } catch (Exception e) {
                 System.err.println("Error crawling " + page[1] + ": " + e.getMessage());
             }
         }
+        
+        // Let the workers finish before results are saved
+        try {
+            productPipeline.awaitIdle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
     
     /**
@@ -184,7 +362,7 @@ public class JBLScrapper {
         
         try {
             // Wait for potential popup with explicit wait
-            WebDriverWait popupWait = new WebDriverWait(driver, Duration.ofSeconds(5));
+            WebDriverWait popupWait = new WebDriverWait(driver, Duration.ofSeconds(isReplaying() ? 0 : 5));
             
             // Look for common popup selectors with more comprehensive list
             String[] popupSelectors = {
@@ -211,7 +389,7 @@ public class JBLScrapper {
                     if (popup.isDisplayed() && popup.isEnabled()) {
                         // Scroll to element before clicking
                         ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", popup);
-                        Thread.sleep(500);
+                        pause(500);
                         popup.click();
                         System.out.println("Closed popup using selector: " + selector);
                         popupFound = true;
@@ -227,7 +405,7 @@ public class JBLScrapper {
             }
             
             // Additional wait for any remaining animations
-            Thread.sleep(1000);
+            pause(1000);
             
         } catch (Exception e) {
             System.out.println("Error handling popups: " + e.getMessage());
@@ -267,7 +445,7 @@ public class JBLScrapper {
             }
             
             // Wait for dynamic content to load
-            Thread.sleep(3000);
+            pause(3000);
             
             // Try to interact with sort dropdown - JBL specific selectors
             String[] sortSelectors = {
@@ -283,7 +461,7 @@ public class JBLScrapper {
                     if (sortDropdown.isDisplayed() && sortDropdown.isEnabled()) {
                         // Scroll to element
                         ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", sortDropdown);
-                        Thread.sleep(500);
+                        pause(500);
                         sortDropdown.click();
                         System.out.println("Clicked on sort dropdown: " + selector);
                         break;
@@ -308,11 +486,11 @@ public class JBLScrapper {
                     if (filter.isDisplayed() && filter.isEnabled()) {
                         // Scroll to element
                         ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", filter);
-                        Thread.sleep(500);
+                        pause(500);
                         filter.click();
                         System.out.println("Applied filter: " + selector);
                         // Wait for filter to apply
-                        Thread.sleep(2000);
+                        pause(2000);
                         break;
                     }
                 } catch (Exception e) {
@@ -326,11 +504,17 @@ public class JBLScrapper {
     }
     
     /**
-     * Extract product data from the current page using correct JBL selectors
+     * Extract product data from the current page using correct JBL selectors,
+     * labelling products with the name of the category being crawled
      */
-    public void extractProductDataFromCurrentPage() {
+    public void extractProductDataFromCurrentPage(String category) {
         System.out.println("Extracting product data...");
         
+        // Capture here, after the product waits, so late-loading tiles are in the archive
+        if ("capture".equals(archiveMode)) {
+            capturePage(currentPageUrl, currentPageFetchable);
+        }
+        
         try {
             // Wait for products to load - JBL uses .product-info as the main container
             String[] productSelectors = {
@@ -359,150 +543,63 @@ public class JBLScrapper {
             }
             
             for (WebElement productTile : productTiles) {
-                try {
-                    Product product = new Product();
-                    
-                    // Extract product name - JBL uses .product-name h3
-                    try {
-                        WebElement nameElement = productTile.findElement(By.cssSelector(".product-name h3, .product-name"));
-                        product.setName(nameElement.getText().trim());
-                    } catch (Exception e) {
-                        product.setName("N/A");
-                    }
-                    
-                    // Extract price - JBL uses .product-sales-price
-                    try {
-                        WebElement priceElement = productTile.findElement(By.cssSelector(".product-sales-price"));
-                        product.setPrice(priceElement.getText().trim());
-                    } catch (Exception e) {
-                        product.setPrice("N/A");
-                    }
-                    
-                    // Extract original price - JBL uses .product-standard-price
-                    try {
-                        WebElement originalPriceElement = productTile.findElement(By.cssSelector(".product-standard-price"));
-                        product.setOriginalPrice(originalPriceElement.getText().trim());
-                    } catch (Exception e) {
-                        product.setOriginalPrice("N/A");
-                    }
-                    
-                    // Extract discount - JBL uses .price-standard-save-percent
-                    try {
-                        WebElement discountElement = productTile.findElement(By.cssSelector(".price-standard-save-percent"));
-                        product.setDiscount(discountElement.getText().trim());
-                    } catch (Exception e) {
-                        product.setDiscount("N/A");
-                    }
-                    
-                    // Extract availability - JBL uses .availability
-                    try {
-                        WebElement availabilityElement = productTile.findElement(By.cssSelector(".availability"));
-                        String availability = availabilityElement.getText().trim();
-                        if (availability.isEmpty()) {
-                            // Check for data attributes or other indicators
-                            String availabilityClass = availabilityElement.getAttribute("class");
-                            if (availabilityClass != null && availabilityClass.contains("in-stock")) {
-                                availability = "In Stock";
-                            } else {
-                                availability = "In Stock"; // Default assumption
-                            }
-                        }
-                        product.setAvailability(availability);
-                    } catch (Exception e) {
-                        product.setAvailability("In Stock"); // Default assumption
-                    }
-                    
-                    // Extract image URL from swatch data
-                    try {
-                        // Try to get image from swatch data first
-                        WebElement swatchData = productTile.findElement(By.cssSelector(".swatch-data"));
-                        String swatchJson = swatchData.getText();
-                        if (swatchJson.contains("thumbnailImageUrl")) {
-                            // Parse JSON to extract image URL
-                            String imageUrl = extractImageUrlFromJson(swatchJson);
-                            product.setImageUrl(imageUrl);
-                        } else {
-                            // Fallback to regular img tag
-                            WebElement imageElement = productTile.findElement(By.cssSelector("img"));
-                            String imageUrl = imageElement.getAttribute("src");
-                            if (imageUrl == null || imageUrl.isEmpty()) {
-                                imageUrl = imageElement.getAttribute("data-src");
-                            }
-                            product.setImageUrl(imageUrl != null ? imageUrl : "N/A");
-                        }
-                    } catch (Exception e) {
-                        product.setImageUrl("N/A");
-                    }
-                    
-                    // Extract product URL - JBL uses .productname-link
-                    try {
-                        WebElement linkElement = productTile.findElement(By.cssSelector(".productname-link"));
-                        product.setProductUrl(linkElement.getAttribute("href"));
-                    } catch (Exception e) {
-                        product.setProductUrl("N/A");
-                    }
-                    
-                    // Extract color information from swatch
-                    try {
-                        WebElement colorElement = productTile.findElement(By.cssSelector(".swatch.selected img"));
-                        product.setColor(colorElement.getAttribute("title"));
-                    } catch (Exception e) {
-                        product.setColor("N/A");
-                    }
-                    
-                    // Extract description - JBL uses .product-description
-                    try {
-                        WebElement descriptionElement = productTile.findElement(By.cssSelector(".product-description"));
-                        product.setDescription(descriptionElement.getText().trim());
-                    } catch (Exception e) {
-                        product.setDescription("N/A");
-                    }
-                    
-                    // Set category based on current page
-                    String currentUrl = driver.getCurrentUrl();
-                    if (currentUrl.contains("party-speakers")) {
-                        product.setCategory("Party Speakers");
-                    } else if (currentUrl.contains("sale")) {
-                        product.setCategory("Sale");
-                    } else if (currentUrl.contains("bluetooth-speakers")) {
-                        product.setCategory("Bluetooth Speakers");
-                    } else {
-                        product.setCategory("Home Audio");
-                    }
-                    
-                    // Only add products with valid names
-                    if (!product.getName().equals("N/A") && !product.getName().isEmpty()) {
-                        products.add(product);
-                        System.out.println("Extracted: " + product.getName() + " - " + product.getPrice());
+                long start = System.nanoTime();
+                ProductPipeline.RawProduct raw = new ProductPipeline.RawProduct();
+                raw.category = category;
+                
+                // JBL uses .product-name h3 for the product name
+                raw.name = readText(productTile, ".product-name h3, .product-name");
+                // JBL uses .product-sales-price, .product-standard-price and .price-standard-save-percent
+                raw.price = readText(productTile, ".product-sales-price");
+                raw.originalPrice = readText(productTile, ".product-standard-price");
+                raw.discount = readText(productTile, ".price-standard-save-percent");
+                raw.availability = readText(productTile, ".availability");
+                
+                // Image URL comes from swatch data, falling back to the img tag
+                raw.swatchJson = readText(productTile, ".swatch-data");
+                if (raw.swatchJson == null || !raw.swatchJson.contains("thumbnailImageUrl")) {
+                    raw.imageSrc = readAttribute(productTile, "img", "src");
+                    if (raw.imageSrc == null || raw.imageSrc.isEmpty()) {
+                        raw.imageDataSrc = readAttribute(productTile, "img", "data-src");
                     }
-                    
-                } catch (Exception e) {
-                    System.out.println("Error extracting product data: " + e.getMessage());
                 }
+                
+                // JBL uses .productname-link for the product URL
+                raw.productUrl = readAttribute(productTile, ".productname-link", "href");
+                raw.color = readAttribute(productTile, ".swatch.selected img", "title");
+                raw.description = readText(productTile, ".product-description");
+                
+                // Blocks while the workers are behind
+                productPipeline.submit(raw, System.nanoTime() - start);
             }
             
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             System.out.println("Error during data extraction: " + e.getMessage());
         }
     }
     
     /**
-     * Extract image URL from JSON data in swatch
+     * Read the text of a child element, or null if it is not present
      */
-    private String extractImageUrlFromJson(String jsonData) {
+    private String readText(WebElement parent, String selector) {
         try {
-            // Simple JSON parsing to extract thumbnailImageUrl
-            if (jsonData.contains("\"thumbnailImageUrl\"")) {
-                int startIndex = jsonData.indexOf("\"thumbnailImageUrl\":\"") + 21;
-                int endIndex = jsonData.indexOf("\"", startIndex);
-                if (startIndex > 20 && endIndex > startIndex) {
-                    return jsonData.substring(startIndex, endIndex);
-                }
-            }
+            return parent.findElement(By.cssSelector(selector)).getText();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Read an attribute of a child element, or null if it is not present
+     */
+    private String readAttribute(WebElement parent, String selector, String attribute) {
+        try {
+            return parent.findElement(By.cssSelector(selector)).getAttribute(attribute);
         } catch (Exception e) {
-            System.out.println("Error parsing JSON for image URL: " + e.getMessage());
+            return null;
         }
-        return "N/A";
     }
     
     /**
@@ -526,7 +623,7 @@ public class JBLScrapper {
     /**
      * Navigate through multiple pages within a category
      */
-    public void navigateThroughPages() {
+    public void navigateThroughPages(String category) {
         System.out.println("Navigating through pages within category...");
         
         try {
@@ -534,10 +631,28 @@ public class JBLScrapper {
             int currentPage = 1;
             
             while (currentPage <= maxPages) {
+                if (isCancelled()) {
+                    System.out.println("Crawl cancelled at page " + currentPage);
+                    break;
+                }
                 System.out.println("Crawling page " + currentPage + " of category...");
                 
                 // Extract data from current page
-                extractProductDataFromCurrentPage();
+                extractProductDataFromCurrentPage(category);
+                
+                // Replayed pages cannot run the pagination scripts, so follow the recorded sequence
+                if (isReplaying()) {
+                    PageArchive.Entry entry = pageArchive.findByPath(PageArchive.pathAndQuery(currentPageUrl));
+                    if (entry == null || entry.getNextUrl() == null) {
+                        System.out.println("No more pages available in this category");
+                        break;
+                    }
+                    currentPageUrl = entry.getNextUrl();
+                    driver.get(replayServer.toReplayUrl(currentPageUrl));
+                    currentPage++;
+                    System.out.println("Navigated to page " + currentPage);
+                    continue;
+                }
                 
                 // Try to find and click next page button with multiple selectors
                 String[] nextButtonSelectors = {
@@ -553,16 +668,26 @@ public class JBLScrapper {
                         if (nextButton.isDisplayed() && nextButton.isEnabled()) {
                             // Scroll to element
                             ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", nextButton);
-                            Thread.sleep(1000);
+                            pause(1000);
                             
                             // Click next button
+                            String urlBeforeClick = driver.getCurrentUrl();
                             nextButton.click();
                             
                             // Wait for page to load
-                            Thread.sleep(3000);
+                            pause(3000);
                             currentPage++;
                             nextPageFound = true;
                             
+                            // Track the new page so capture can record it and link it for replay
+                            String urlAfterClick = driver.getCurrentUrl();
+                            String previousPageUrl = currentPageUrl;
+                            currentPageFetchable = !urlAfterClick.equals(urlBeforeClick);
+                            currentPageUrl = currentPageFetchable ? urlAfterClick : pagedUrl(previousPageUrl, currentPage);
+                            if ("capture".equals(archiveMode)) {
+                                pageArchive.linkNext(previousPageUrl, currentPageUrl);
+                            }
+                            
                             System.out.println("Navigated to page " + currentPage);
                             break;
                         }
@@ -582,6 +707,51 @@ public class JBLScrapper {
         }
     }
     
+    /**
+     * Copy of the products scraped so far
+     */
+    public List<Product> getProducts() {
+        synchronized (products) {
+            return new ArrayList<>(products);
+        }
+    }
+    
+    /**
+     * Clear results and pipeline state before another crawl in the same session
+     */
+    public void resetResults() {
+        // Reset the pipeline first so a late product from the previous crawl is dropped, not kept
+        productPipeline.reset();
+        products.clear();
+    }
+    
+    /**
+     * Check that the browser session still responds
+     */
+    public boolean isDriverAlive() {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Replace a dead browser session with a fresh one
+     */
+    public void restartDriver() {
+        System.out.println("Restarting WebDriver...");
+        try {
+            if (driver != null) {
+                driver.quit();
+            }
+        } catch (Exception e) {
+            System.out.println("Error quitting WebDriver: " + e.getMessage());
+        }
+        initializeDriver();
+    }
+    
     /**
      * Save scraped data to CSV file
      */
@@ -658,6 +828,8 @@ public class JBLScrapper {
         System.out.println("\nProducts by category:");
         categoryCount.forEach((category, count) -> 
             System.out.println("- " + category + ": " + count + " products"));
+        
+        productPipeline.printMetrics();
     }
     
     /**
@@ -667,6 +839,15 @@ public class JBLScrapper {
         if (driver != null) {
             System.out.println("Closing WebDriver...");
             driver.quit();
+            driver = null;
+        }
+        if (replayServer != null) {
+            replayServer.stop();
+        }
+        try {
+            productPipeline.shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
     
@@ -675,11 +856,37 @@ public class JBLScrapper {
      */
     public static void main(String[] args) {
         JBLScrapper scraper = new JBLScrapper();
+        boolean daemonStarted = false;
         
         try {
+            // Optional category file, e.g. -Djbl.categories=categories.json
+            String categoryFile = System.getProperty("jbl.categories");
+            if (categoryFile != null) {
+                scraper.loadCategories(categoryFile);
+            }
+            
+            // Optional record-and-replay, e.g. -Djbl.archive.mode=capture or -Djbl.archive.mode=replay
+            scraper.configurePageArchive(
+                System.getProperty("jbl.archive.mode", "off"),
+                System.getProperty("jbl.archive.dir", "page-archive"),
+                Long.getLong("jbl.replay.latencyMs", 0L),
+                Integer.getInteger("jbl.replay.port", 0));
+            
             // Initialize WebDriver
             scraper.initializeDriver();
             
+            // Daemon mode keeps the JVM and browser resident and crawls on a schedule
+            if (Boolean.getBoolean("jbl.daemon")) {
+                CrawlDaemon daemon = new CrawlDaemon(scraper, categoryFile);
+                daemon.start(
+                    System.getProperty("jbl.schedule.cron"),
+                    Long.getLong("jbl.schedule.intervalMinutes", 60L),
+                    Integer.getInteger("jbl.http.port", 8080));
+                daemonStarted = true;
+                daemon.awaitShutdown();
+                return;
+            }
+            
             // Crawl multiple pages with enhanced features
             scraper.crawlMultiplePages();
             
@@ -694,8 +901,10 @@ public class JBLScrapper {
             System.err.println("Error during scraping: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            // Always close the driver
-            scraper.closeDriver();
+            // Once started, the daemon closes the driver itself after its crawl has stopped
+            if (!daemonStarted) {
+                scraper.closeDriver();
+            }
         }
     }
 }
@@ -0,0 +1,205 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk archive of captured pages used for record-and-replay crawls.
+ *
+ * Layout: an index.json file mapping each URL to its entry, plus one
+ * gzip-compressed file for the raw HTTP body and one for the rendered DOM.
+ */
+public class PageArchive {
+
+    private static final String INDEX_FILE = "index.json";
+
+    private final File directory;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> index;
+
+    // Archived page metadata
+    public static class Entry {
+        private String id;
+        private String url;
+        private int rawStatus;
+        private Map<String, List<String>> headers;
+        private String bodyFile;
+        private String domFile;
+        private String nextUrl;
+        private long capturedAt;
+
+        public Entry() {}
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        // Status of the side request that fetched body and headers, 0 if none was made
+        public int getRawStatus() { return rawStatus; }
+        public void setRawStatus(int rawStatus) { this.rawStatus = rawStatus; }
+
+        public Map<String, List<String>> getHeaders() { return headers; }
+        public void setHeaders(Map<String, List<String>> headers) { this.headers = headers; }
+
+        public String getBodyFile() { return bodyFile; }
+        public void setBodyFile(String bodyFile) { this.bodyFile = bodyFile; }
+
+        public String getDomFile() { return domFile; }
+        public void setDomFile(String domFile) { this.domFile = domFile; }
+
+        // Page reached from this one through the pagination control, if any
+        public String getNextUrl() { return nextUrl; }
+        public void setNextUrl(String nextUrl) { this.nextUrl = nextUrl; }
+
+        public long getCapturedAt() { return capturedAt; }
+        public void setCapturedAt(long capturedAt) { this.capturedAt = capturedAt; }
+    }
+
+    /**
+     * Open an archive directory, loading its index if one already exists
+     */
+    public PageArchive(File directory, ObjectMapper objectMapper) throws IOException {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.index = new LinkedHashMap<>();
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create archive directory: " + directory);
+        }
+
+        File indexFile = new File(directory, INDEX_FILE);
+        if (indexFile.exists()) {
+            List<Entry> entries = objectMapper.readValue(indexFile, new TypeReference<List<Entry>>() {});
+            for (Entry entry : entries) {
+                index.put(entry.getUrl(), entry);
+            }
+        }
+    }
+
+    /**
+     * Store a captured page, replacing any earlier capture of the same URL
+     */
+    public synchronized void record(String url, int rawStatus, Map<String, List<String>> headers,
+                                    String body, String renderedDom) throws IOException {
+        Entry entry = index.get(url);
+        if (entry == null) {
+            entry = new Entry();
+            entry.setId(String.format("page-%04d", index.size() + 1));
+            entry.setUrl(url);
+        }
+
+        entry.setRawStatus(rawStatus);
+        entry.setHeaders(headers != null ? headers : new LinkedHashMap<>());
+        entry.setCapturedAt(System.currentTimeMillis());
+        // linkNext() sets this again if the page still has a next page
+        entry.setNextUrl(null);
+
+        if (body != null) {
+            entry.setBodyFile(entry.getId() + ".body.gz");
+            writeCompressed(entry.getBodyFile(), body);
+        } else {
+            entry.setBodyFile(null);
+        }
+        if (renderedDom != null) {
+            entry.setDomFile(entry.getId() + ".dom.gz");
+            writeCompressed(entry.getDomFile(), renderedDom);
+        }
+
+        index.put(url, entry);
+        writeIndex();
+    }
+
+    /**
+     * Remember that the next page after one URL is another, so replay can follow pagination
+     */
+    public synchronized void linkNext(String url, String nextUrl) throws IOException {
+        Entry entry = index.get(url);
+        if (entry != null) {
+            entry.setNextUrl(nextUrl);
+            writeIndex();
+        }
+    }
+
+    /**
+     * Find the entry recorded for an exact URL
+     */
+    public synchronized Entry find(String url) {
+        return index.get(url);
+    }
+
+    /**
+     * Find the entry whose URL has the given path and query, ignoring scheme and host
+     */
+    public synchronized Entry findByPath(String pathAndQuery) {
+        String wanted = normalizePath(pathAndQuery);
+        for (Entry entry : index.values()) {
+            if (normalizePath(pathAndQuery(entry.getUrl())).equals(wanted)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public String readBody(Entry entry) throws IOException {
+        return entry.getBodyFile() != null ? readCompressed(entry.getBodyFile()) : null;
+    }
+
+    public String readRenderedDom(Entry entry) throws IOException {
+        return entry.getDomFile() != null ? readCompressed(entry.getDomFile()) : null;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Path and query portion of a URL, e.g. "/en_CA/sale/?start=24"
+     */
+    public static String pathAndQuery(String url) {
+        URI uri = URI.create(url);
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        return uri.getRawQuery() != null ? path + "?" + uri.getRawQuery() : path;
+    }
+
+    private static String normalizePath(String pathAndQuery) {
+        // Treat "/sale" and "/sale/" as the same page
+        int queryStart = pathAndQuery.indexOf('?');
+        String path = queryStart >= 0 ? pathAndQuery.substring(0, queryStart) : pathAndQuery;
+        String query = queryStart >= 0 ? pathAndQuery.substring(queryStart) : "";
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path + query;
+    }
+
+    private void writeIndex() throws IOException {
+        // Rewrite the index after every change so an interrupted crawl keeps what it recorded
+        objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(new File(directory, INDEX_FILE), new ArrayList<>(index.values()));
+    }
+
+    private void writeCompressed(String fileName, String content) throws IOException {
+        try (Writer writer = new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(new File(directory, fileName))),
+                StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+    }
+
+    private String readCompressed(String fileName) throws IOException {
+        try (InputStream in = new GZIPInputStream(new FileInputStream(new File(directory, fileName)))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Staged pipeline between the crawling thread and product post-processing.
+ *
+ * The crawler only reads raw strings from the browser and submits them; a bound on
+ * in-flight items applies backpressure, and a fixed worker pool normalises and validates
+ * them in parallel. A final ordered stage de-duplicates and hands products to the sink
+ * in submission order, so output does not depend on which worker finishes first.
+ */
+public class ProductPipeline {
+
+    private static final String NOT_AVAILABLE = "N/A";
+
+    private final Semaphore capacity;
+    private final ThreadPoolExecutor workers;
+    private final Consumer<JBLScrapper.Product> sink;
+
+    // Ordered sink stage state, guarded by sinkLock
+    private final Object sinkLock = new Object();
+    private final Map<Long, JBLScrapper.Product> completed = new HashMap<>();
+    private final Set<String> seenKeys = new HashSet<>();
+    private long nextToEmit;
+    private long nextSequence;
+    private long generation;
+
+    private final Object idleLock = new Object();
+    private final AtomicLong pending = new AtomicLong();
+
+    private final StageMetrics browserStage = new StageMetrics("browser");
+    private final StageMetrics processStage = new StageMetrics("process");
+    private final StageMetrics sinkStage = new StageMetrics("sink");
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+
+    // Raw tile data as read from the browser; null means the element was not found
+    public static class RawProduct {
+        long generation;
+        long sequence;
+        String category;
+        String name;
+        String price;
+        String originalPrice;
+        String discount;
+        String availability;
+        String swatchJson;
+        String imageSrc;
+        String imageDataSrc;
+        String productUrl;
+        String color;
+        String description;
+    }
+
+    // Item count, busy time and wall-clock span of one pipeline stage
+    public static class StageMetrics {
+        private final String name;
+        private final AtomicLong items = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+        private final AtomicLong firstStart = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong lastEnd = new AtomicLong(Long.MIN_VALUE);
+
+        StageMetrics(String name) {
+            this.name = name;
+        }
+
+        void record(long startNanos, long endNanos) {
+            items.incrementAndGet();
+            nanos.addAndGet(endNanos - startNanos);
+            firstStart.accumulateAndGet(startNanos, Math::min);
+            lastEnd.accumulateAndGet(endNanos, Math::max);
+        }
+
+        void reset() {
+            items.set(0);
+            nanos.set(0);
+            firstStart.set(Long.MAX_VALUE);
+            lastEnd.set(Long.MIN_VALUE);
+        }
+
+        public String getName() { return name; }
+        public long getItems() { return items.get(); }
+
+        public double getAverageMillis() {
+            long count = items.get();
+            return count == 0 ? 0 : nanos.get() / 1_000_000.0 / count;
+        }
+
+        /**
+         * Items per wall-clock second, from the first item starting to the last one finishing,
+         * so parallel workers and idle gaps between pages are both accounted for
+         */
+        public double getItemsPerSecond() {
+            long count = items.get();
+            long span = lastEnd.get() - firstStart.get();
+            return count == 0 || span <= 0 ? 0 : count * 1_000_000_000.0 / span;
+        }
+    }
+
+    public ProductPipeline(int queueCapacity, int workerCount, Consumer<JBLScrapper.Product> sink) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Pipeline queue capacity must be positive (jbl.pipeline.queueCapacity): " + queueCapacity);
+        }
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Pipeline worker count must be positive (jbl.pipeline.workers): " + workerCount);
+        }
+
+        this.capacity = new Semaphore(queueCapacity);
+        this.sink = sink;
+
+        // Idle workers park on the queue; daemon threads never hold the JVM open
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "product-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Hand raw tile data to the workers, blocking while too many items are in flight
+     */
+    public void submit(RawProduct raw, long browserNanos) throws InterruptedException {
+        long now = System.nanoTime();
+        browserStage.record(now - browserNanos, now);
+        capacity.acquire();
+
+        synchronized (sinkLock) {
+            raw.generation = generation;
+            raw.sequence = nextSequence++;
+            pending.incrementAndGet();
+        }
+        try {
+            workers.execute(() -> process(raw));
+        } catch (RejectedExecutionException e) {
+            // Pool is shut down; release the slot so ordering and awaitIdle() do not stall
+            complete(raw, null);
+            throw e;
+        }
+        maxQueueDepth.accumulateAndGet(getQueueDepth(), Math::max);
+    }
+
+    /**
+     * Wait until every submitted product has been processed
+     */
+    public void awaitIdle() throws InterruptedException {
+        synchronized (idleLock) {
+            while (pending.get() > 0) {
+                idleLock.wait();
+            }
+        }
+    }
+
+    /**
+     * Wait up to the given time for submitted products; returns false on timeout
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (idleLock) {
+            while (pending.get() > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                idleLock.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drain outstanding work and stop the worker pool
+     */
+    public void shutdown() throws InterruptedException {
+        if (!awaitIdle(10, TimeUnit.SECONDS)) {
+            System.out.println("Stopping pipeline with " + pending.get() + " products unprocessed");
+        }
+        workers.shutdownNow();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Forget previously seen products and metrics, e.g. before a fresh crawl
+     */
+    public void reset() {
+        synchronized (sinkLock) {
+            completed.clear();
+            seenKeys.clear();
+            nextToEmit = 0;
+            nextSequence = 0;
+            generation++;
+            pending.set(0);
+        }
+        browserStage.reset();
+        processStage.reset();
+        sinkStage.reset();
+        maxQueueDepth.set(0);
+        rejected.set(0);
+        duplicates.set(0);
+    }
+
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    public List<StageMetrics> getStageMetrics() {
+        return Arrays.asList(browserStage, processStage, sinkStage);
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    /**
+     * Print per-stage throughput and queue statistics
+     */
+    public void printMetrics() {
+        System.out.println("\nPipeline metrics:");
+        for (StageMetrics stage : getStageMetrics()) {
+            System.out.println(String.format("- %s: %d items, %.2f ms/item, %.1f items/s",
+                    stage.getName(), stage.getItems(), stage.getAverageMillis(), stage.getItemsPerSecond()));
+        }
+        System.out.println("- queue depth: " + getQueueDepth() + " (max " + maxQueueDepth.get() + ")");
+        System.out.println("- rejected: " + rejected.get() + ", duplicates: " + duplicates.get());
+    }
+
+    private void process(RawProduct raw) {
+        JBLScrapper.Product product = null;
+        try {
+            long start = System.nanoTime();
+            product = normalise(raw);
+
+            // Only keep products with valid names
+            if (product.getName().equals(NOT_AVAILABLE)) {
+                rejected.incrementAndGet();
+                product = null;
+            }
+            processStage.record(start, System.nanoTime());
+        } catch (Exception e) {
+            System.out.println("Error processing product data: " + e.getMessage());
+            product = null;
+        } finally {
+            complete(raw, product);
+        }
+    }
+
+    /**
+     * Ordered sink stage: emit finished products in submission order, once per category
+     */
+    private void complete(RawProduct raw, JBLScrapper.Product product) {
+        boolean idle = false;
+        synchronized (sinkLock) {
+            // Items left over from before a reset() belong to an abandoned crawl
+            if (raw.generation != generation) {
+                capacity.release();
+                return;
+            }
+            completed.put(raw.sequence, product);
+            int finished = 0;
+            while (completed.containsKey(nextToEmit)) {
+                JBLScrapper.Product next = completed.remove(nextToEmit++);
+                finished++;
+                if (next != null) {
+                    emit(next);
+                }
+            }
+            // Under sinkLock so a concurrent reset() cannot be undone by a late decrement
+            idle = finished > 0 && pending.addAndGet(-finished) == 0;
+        }
+
+        capacity.release();
+        if (idle) {
+            synchronized (idleLock) {
+                idleLock.notifyAll();
+            }
+        }
+    }
+
+    private void emit(JBLScrapper.Product product) {
+        long start = System.nanoTime();
+        String key = product.getCategory() + "|" + product.getName() + "|"
+                + product.getProductUrl() + "|" + product.getColor();
+        if (!seenKeys.add(key)) {
+            duplicates.incrementAndGet();
+            return;
+        }
+
+        try {
+            sink.accept(product);
+            System.out.println("Extracted: " + product.getName() + " - " + product.getPrice());
+        } catch (Exception e) {
+            System.out.println("Error saving product data: " + e.getMessage());
+        }
+        sinkStage.record(start, System.nanoTime());
+    }
+
+    JBLScrapper.Product normalise(RawProduct raw) {
+        JBLScrapper.Product product = new JBLScrapper.Product();
+        product.setName(clean(raw.name));
+        product.setPrice(clean(raw.price));
+        product.setPriceValue(parsePrice(raw.price));
+        product.setOriginalPrice(clean(raw.originalPrice));
+        product.setDiscount(clean(raw.discount));
+        product.setProductUrl(clean(raw.productUrl));
+        product.setColor(clean(raw.color));
+        product.setDescription(clean(raw.description));
+
+        // Empty or missing availability defaults to in stock
+        String availability = raw.availability != null ? raw.availability.trim() : "";
+        product.setAvailability(availability.isEmpty() ? "In Stock" : availability);
+
+        // Prefer the swatch thumbnail, falling back to the img tag
+        if (raw.swatchJson != null && raw.swatchJson.contains("thumbnailImageUrl")) {
+            product.setImageUrl(extractImageUrlFromJson(raw.swatchJson));
+        } else if (raw.imageSrc != null && !raw.imageSrc.isEmpty()) {
+            product.setImageUrl(raw.imageSrc);
+        } else {
+            product.setImageUrl(clean(raw.imageDataSrc));
+        }
+
+        product.setCategory(raw.category != null ? raw.category : NOT_AVAILABLE);
+        return product;
+    }
+
+    private static String clean(String value) {
+        if (value == null) {
+            return NOT_AVAILABLE;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? NOT_AVAILABLE : trimmed;
+    }
+
+    /**
+     * Parse a displayed price such as "$1,299.98" into a number, or null when absent
+     */
+    static Double parsePrice(String price) {
+        if (price == null) {
+            return null;
+        }
+        String digits = price.replaceAll("[^0-9.]", "");
+        if (digits.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(digits);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Extract image URL from JSON data in swatch
+     */
+    private static String extractImageUrlFromJson(String jsonData) {
+        try {
+            // Simple JSON parsing to extract thumbnailImageUrl
+            if (jsonData.contains("\"thumbnailImageUrl\"")) {
+                int startIndex = jsonData.indexOf("\"thumbnailImageUrl\":\"") + 21;
+                int endIndex = jsonData.indexOf("\"", startIndex);
+                if (startIndex > 20 && endIndex > startIndex) {
+                    return jsonData.substring(startIndex, endIndex);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("Error parsing JSON for image URL: " + e.getMessage());
+        }
+        return NOT_AVAILABLE;
+    }
+}
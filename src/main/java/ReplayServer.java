@@ -0,0 +1,112 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server that serves a PageArchive back to the browser.
+ *
+ * Pages are served under the same path they were captured from, so
+ * root-relative links and stylesheets resolve against the archive.
+ */
+public class ReplayServer {
+
+    private static final String REPLAY_POLICY = "default-src 'self' 'unsafe-inline' data:; script-src 'none'";
+
+    private final PageArchive archive;
+    private final long latencyMillis;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public ReplayServer(PageArchive archive, long latencyMillis) {
+        this.archive = archive;
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Start listening on the loopback interface (port 0 picks a free port)
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/", this::handle);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        System.out.println("Replay server serving " + archive.size() + " pages at " + getBaseUrl());
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdown();
+            server = null;
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Map a live site URL to the equivalent URL on this server
+     */
+    public String toReplayUrl(String url) {
+        return getBaseUrl() + PageArchive.pathAndQuery(url);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            PageArchive.Entry entry = archive.findByPath(exchange.getRequestURI().getRawPath()
+                    + (exchange.getRequestURI().getRawQuery() != null ? "?" + exchange.getRequestURI().getRawQuery() : ""));
+            if (entry == null) {
+                respond(exchange, 404, "text/plain; charset=utf-8", "Not in archive");
+                return;
+            }
+
+            // Simulated network latency applies to archived pages only
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            // The browser's rendered DOM is authoritative; the raw body is only a fallback
+            String content = archive.readRenderedDom(entry);
+            int status = 200;
+            if (content == null) {
+                content = archive.readBody(entry);
+                status = entry.getRawStatus() > 0 ? entry.getRawStatus() : 200;
+            }
+
+            String contentType = "text/html; charset=utf-8";
+            List<String> recordedType = entry.getHeaders() != null ? entry.getHeaders().get("content-type") : null;
+            if (recordedType != null && !recordedType.isEmpty()) {
+                // Content is stored as UTF-8 regardless of the charset it was captured with
+                contentType = recordedType.get(0).split(";")[0].trim() + "; charset=utf-8";
+            }
+
+            // The rendered DOM is already the post-script state, so block scripts from running again,
+            // and keep images, styles and fonts from reaching the live site; extracted URLs stay unchanged
+            exchange.getResponseHeaders().add("Content-Security-Policy", REPLAY_POLICY);
+            respond(exchange, status, contentType, content != null ? content : "");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "text/plain; charset=utf-8", "Interrupted");
+        } catch (Exception e) {
+            System.err.println("Error serving replayed page: " + e.getMessage());
+            respond(exchange, 500, "text/plain; charset=utf-8", "Replay error");
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String contentType, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
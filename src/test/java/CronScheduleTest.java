@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CronScheduleTest {
+
+    private static final ZoneId UTC = ZoneOffset.UTC;
+    private static final ZoneId TORONTO = ZoneId.of("America/Toronto");
+
+    // Monday 2026-10-19 10:07:30 UTC
+    private static final ZonedDateTime MONDAY = ZonedDateTime.of(2026, 10, 19, 10, 7, 30, 0, UTC);
+
+    private static ZonedDateTime next(String expression, ZonedDateTime from) {
+        return new CronSchedule(expression).nextAfter(from);
+    }
+
+    @Test
+    public void everyMinuteFiresOnTheNextWholeMinute() {
+        assertEquals(ZonedDateTime.of(2026, 10, 19, 10, 8, 0, 0, UTC), next("* * * * *", MONDAY));
+    }
+
+    @Test
+    public void resultIsStrictlyAfterAnExactMatch() {
+        ZonedDateTime onTheHour = ZonedDateTime.of(2026, 10, 19, 12, 0, 0, 0, UTC);
+        assertEquals(onTheHour.plusHours(1), next("0 * * * *", onTheHour));
+    }
+
+    @Test
+    public void stepsRangesAndLists() {
+        assertEquals(ZonedDateTime.of(2026, 10, 19, 10, 15, 0, 0, UTC), next("*/15 * * * *", MONDAY));
+        assertEquals(ZonedDateTime.of(2026, 10, 19, 12, 0, 0, 0, UTC), next("0 */6 * * *", MONDAY));
+        assertEquals(ZonedDateTime.of(2026, 10, 19, 10, 10, 0, 0, UTC), next("0-30/10 * * * *", MONDAY));
+        assertEquals(ZonedDateTime.of(2026, 10, 19, 17, 45, 0, 0, UTC), next("45 9,17 * * *", MONDAY));
+    }
+
+    @Test
+    public void weekdayRangeSkipsToNextMatchingDay() {
+        assertEquals(ZonedDateTime.of(2026, 10, 20, 2, 30, 0, 0, UTC), next("30 2 * * 1-5", MONDAY));
+        assertEquals(ZonedDateTime.of(2026, 10, 24, 8, 0, 0, 0, UTC), next("0 8 * * 6", MONDAY));
+    }
+
+    @Test
+    public void sevenIsSunday() {
+        assertEquals(ZonedDateTime.of(2026, 10, 25, 0, 0, 0, 0, UTC), next("0 0 * * 7", MONDAY));
+        assertEquals(next("0 0 * * 0", MONDAY), next("0 0 * * 7", MONDAY));
+    }
+
+    @Test
+    public void restrictedDayOfMonthAndDayOfWeekMatchEither() {
+        // The 1st of November or any Sunday, whichever comes first
+        assertEquals(ZonedDateTime.of(2026, 10, 25, 0, 0, 0, 0, UTC), next("0 0 1 * 0", MONDAY));
+        // The 20th or any Friday: the 20th comes first
+        assertEquals(ZonedDateTime.of(2026, 10, 20, 0, 0, 0, 0, UTC), next("0 0 20 * 5", MONDAY));
+    }
+
+    @Test
+    public void wildcardDayOfWeekUsesOnlyDayOfMonth() {
+        assertEquals(ZonedDateTime.of(2026, 11, 1, 0, 0, 0, 0, UTC), next("0 0 1 * *", MONDAY));
+    }
+
+    @Test
+    public void leapDaySkipsToNextLeapYear() {
+        assertEquals(ZonedDateTime.of(2028, 2, 29, 4, 5, 0, 0, UTC), next("5 4 29 2 *", MONDAY));
+    }
+
+    @Test
+    public void impossibleDateNeverFires() {
+        assertThrows(IllegalStateException.class, () -> next("0 0 31 2 *", MONDAY));
+    }
+
+    @Test
+    public void timeInDaylightSavingGapFiresJustAfterTheJump() {
+        // Clocks in Toronto jump from 02:00 to 03:00 on 2027-03-14, so 02:30 does not exist that day
+        ZonedDateTime evening = ZonedDateTime.of(2027, 3, 13, 22, 0, 0, 0, TORONTO);
+        ZonedDateTime fired = next("30 2 * * *", evening);
+        assertEquals(ZonedDateTime.of(2027, 3, 14, 3, 30, 0, 0, TORONTO), fired);
+        assertEquals(ZonedDateTime.of(2027, 3, 15, 2, 30, 0, 0, TORONTO), next("30 2 * * *", fired));
+    }
+
+    @Test
+    public void repeatedHourFiresOnce() {
+        // Clocks in Toronto go back from 02:00 to 01:00 on 2027-11-07, so 01:30 happens twice
+        ZonedDateTime evening = ZonedDateTime.of(2027, 11, 6, 22, 0, 0, 0, TORONTO);
+        ZonedDateTime fired = next("30 1 * * *", evening);
+        assertEquals(ZonedDateTime.of(2027, 11, 7, 1, 30, 0, 0, TORONTO).withEarlierOffsetAtOverlap(), fired);
+        assertEquals(ZonedDateTime.of(2027, 11, 8, 1, 30, 0, 0, TORONTO), next("30 1 * * *", fired));
+    }
+
+    @Test
+    public void invalidExpressionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CronSchedule("* * * *"));
+        assertThrows(IllegalArgumentException.class, () -> new CronSchedule("60 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> new CronSchedule("* 24 * * *"));
+        assertThrows(IllegalArgumentException.class, () -> new CronSchedule("* * 0 * *"));
+        assertThrows(IllegalArgumentException.class, () -> new CronSchedule("* * * * 8"));
+        assertThrows(IllegalArgumentException.class, () -> new CronSchedule("10-5 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> new CronSchedule("*/0 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> new CronSchedule("a * * * *"));
+    }
+}
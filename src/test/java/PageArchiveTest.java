@@ -0,0 +1,109 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageArchiveTest {
+
+    private static final String SALE = "https://ca.jbl.com/en_CA/sale/";
+    private static final String SALE_PAGE_2 = "https://ca.jbl.com/en_CA/sale/?jblPage=2";
+
+    @TempDir
+    Path directory;
+
+    private PageArchive open() throws IOException {
+        return new PageArchive(directory.toFile(), new ObjectMapper());
+    }
+
+    @Test
+    public void recordedPageSurvivesReloadingTheIndex() throws IOException {
+        Map<String, List<String>> headers = Collections.singletonMap("content-type", Arrays.asList("text/html"));
+        open().record(SALE, 200, headers, "<html>raw</html>", "<html>rendered \u00e9</html>");
+
+        PageArchive reloaded = open();
+        PageArchive.Entry entry = reloaded.find(SALE);
+        assertNotNull(entry);
+        assertEquals(1, reloaded.size());
+        assertEquals(200, entry.getRawStatus());
+        assertEquals(Arrays.asList("text/html"), entry.getHeaders().get("content-type"));
+        assertEquals("<html>raw</html>", reloaded.readBody(entry));
+        assertEquals("<html>rendered \u00e9</html>", reloaded.readRenderedDom(entry));
+        assertTrue(new File(directory.toFile(), entry.getDomFile()).getName().endsWith(".gz"));
+    }
+
+    @Test
+    public void recapturingReplacesTheEntryAndDropsAStaleBody() throws IOException {
+        PageArchive archive = open();
+        archive.record(SALE, 200, null, "<html>old raw</html>", "<html>old</html>");
+        archive.record(SALE, 403, null, null, "<html>new</html>");
+
+        PageArchive.Entry entry = open().find(SALE);
+        assertEquals(1, archive.size());
+        assertEquals(403, entry.getRawStatus());
+        assertNull(archive.readBody(entry));
+        assertEquals("<html>new</html>", archive.readRenderedDom(entry));
+    }
+
+    @Test
+    public void findByPathIgnoresHostAndTrailingSlash() throws IOException {
+        PageArchive archive = open();
+        archive.record(SALE, 0, null, null, "<html>sale</html>");
+
+        assertEquals(SALE, archive.findByPath("/en_CA/sale").getUrl());
+        assertEquals(SALE, archive.findByPath("/en_CA/sale/").getUrl());
+        assertEquals(SALE, archive.findByPath(PageArchive.pathAndQuery("http://127.0.0.1:8080/en_CA/sale")).getUrl());
+        assertNull(archive.findByPath("/en_CA/home-audio/"));
+    }
+
+    @Test
+    public void findByPathKeepsTheQuery() throws IOException {
+        PageArchive archive = open();
+        archive.record(SALE, 0, null, null, "<html>1</html>");
+        archive.record(SALE_PAGE_2, 0, null, null, "<html>2</html>");
+
+        assertEquals(SALE_PAGE_2, archive.findByPath("/en_CA/sale?jblPage=2").getUrl());
+        assertEquals(SALE_PAGE_2, archive.findByPath("/en_CA/sale/?jblPage=2").getUrl());
+        assertNull(archive.findByPath("/en_CA/sale/?jblPage=3"));
+        assertEquals("/en_CA/sale/?jblPage=2", PageArchive.pathAndQuery(SALE_PAGE_2));
+        assertEquals("/", PageArchive.pathAndQuery("https://ca.jbl.com"));
+    }
+
+    @Test
+    public void linkNextChainsPagesAcrossReloads() throws IOException {
+        String salePage3 = "https://ca.jbl.com/en_CA/sale/?jblPage=3";
+        PageArchive archive = open();
+        archive.record(SALE, 0, null, null, "<html>1</html>");
+        archive.record(SALE_PAGE_2, 0, null, null, "<html>2</html>");
+        archive.record(salePage3, 0, null, null, "<html>3</html>");
+        archive.linkNext(SALE, SALE_PAGE_2);
+        archive.linkNext(SALE_PAGE_2, salePage3);
+        // Linking from a page that was never captured is ignored
+        archive.linkNext("https://ca.jbl.com/en_CA/missing/", SALE);
+
+        PageArchive reloaded = open();
+        assertEquals(SALE_PAGE_2, reloaded.find(SALE).getNextUrl());
+        assertEquals(salePage3, reloaded.find(SALE_PAGE_2).getNextUrl());
+        assertNull(reloaded.find(salePage3).getNextUrl());
+        assertEquals(3, reloaded.size());
+    }
+
+    @Test
+    public void recapturingClearsAStaleNextPage() throws IOException {
+        PageArchive archive = open();
+        archive.record(SALE, 0, null, null, "<html>1</html>");
+        archive.linkNext(SALE, SALE_PAGE_2);
+
+        // The site now has a single page, so no new link is made
+        archive.record(SALE, 0, null, null, "<html>1 again</html>");
+        assertNull(open().find(SALE).getNextUrl());
+    }
+}
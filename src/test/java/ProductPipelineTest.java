@@ -0,0 +1,225 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductPipelineTest {
+
+    private final List<JBLScrapper.Product> emitted = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private ProductPipeline pipeline;
+
+    @AfterEach
+    public void shutdownPipeline() throws InterruptedException {
+        gate.countDown();
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    private static ProductPipeline.RawProduct raw(String name, String price) {
+        ProductPipeline.RawProduct raw = new ProductPipeline.RawProduct();
+        raw.category = "Sale";
+        raw.name = name;
+        raw.price = price;
+        raw.productUrl = "https://ca.jbl.com/en_CA/" + name + ".html";
+        return raw;
+    }
+
+    private void submit(ProductPipeline.RawProduct raw) throws InterruptedException {
+        pipeline.submit(raw, System.nanoTime());
+    }
+
+    private List<String> emittedNames() {
+        List<String> names = new ArrayList<>();
+        synchronized (emitted) {
+            for (JBLScrapper.Product product : emitted) {
+                names.add(product.getName());
+            }
+        }
+        return names;
+    }
+
+    // Holds every product at the gate until the test opens it
+    private ProductPipeline gated(int queueCapacity, int workerCount) {
+        return new ProductPipeline(queueCapacity, workerCount, emitted::add) {
+            @Override
+            JBLScrapper.Product normalise(ProductPipeline.RawProduct raw) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.normalise(raw);
+            }
+        };
+    }
+
+    @Test
+    public void emitsInSubmissionOrderWhenWorkersFinishOutOfOrder() throws InterruptedException {
+        int count = 40;
+        CountDownLatch othersDone = new CountDownLatch(count - 1);
+        Random random = new Random(42);
+        pipeline = new ProductPipeline(count, 4, emitted::add) {
+            @Override
+            JBLScrapper.Product normalise(ProductPipeline.RawProduct raw) {
+                try {
+                    // The first product finishes last, the rest in a shuffled order
+                    if (raw.name.equals("p0")) {
+                        othersDone.await();
+                    } else {
+                        Thread.sleep(random.nextInt(10));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                JBLScrapper.Product product = super.normalise(raw);
+                if (!raw.name.equals("p0")) {
+                    othersDone.countDown();
+                }
+                return product;
+            }
+        };
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            submit(raw("p" + i, "$" + i + ".99"));
+            expected.add("p" + i);
+        }
+        pipeline.awaitIdle();
+
+        assertEquals(expected, emittedNames());
+    }
+
+    @Test
+    public void firstSubmittedDuplicateWins() throws InterruptedException {
+        pipeline = new ProductPipeline(16, 4, emitted::add);
+        submit(raw("Tune 520BT", "$69.98"));
+        submit(raw("Tune 520BT", "$49.98"));
+        ProductPipeline.RawProduct otherCategory = raw("Tune 520BT", "$59.98");
+        otherCategory.category = "Headphones";
+        submit(otherCategory);
+        pipeline.awaitIdle();
+
+        assertEquals(2, emitted.size());
+        assertEquals("$69.98", emitted.get(0).getPrice());
+        assertEquals("Headphones", emitted.get(1).getCategory());
+        assertEquals(1, pipeline.getDuplicates());
+    }
+
+    @Test
+    public void productsWithoutNameAreRejected() throws InterruptedException {
+        pipeline = new ProductPipeline(16, 2, emitted::add);
+        submit(raw("  ", "$1.00"));
+        submit(raw("Flip 6", "$129.98"));
+        pipeline.awaitIdle();
+
+        assertEquals(Collections.singletonList("Flip 6"), emittedNames());
+        assertEquals(1, pipeline.getRejected());
+    }
+
+    @Test
+    public void awaitIdleReturnsOnlyAfterEveryProductIsEmitted() throws InterruptedException {
+        pipeline = gated(16, 2);
+        for (int i = 0; i < 5; i++) {
+            submit(raw("p" + i, "$1.00"));
+        }
+
+        assertFalse(pipeline.awaitIdle(100, TimeUnit.MILLISECONDS));
+        assertTrue(emitted.isEmpty());
+
+        gate.countDown();
+        pipeline.awaitIdle();
+        assertEquals(5, emitted.size());
+    }
+
+    @Test
+    public void submitBlocksWhileThePipelineIsFull() throws Exception {
+        pipeline = gated(2, 1);
+        submit(raw("p0", "$1.00"));
+        submit(raw("p1", "$1.00"));
+
+        CompletableFuture<Void> third = CompletableFuture.runAsync(() -> {
+            try {
+                submit(raw("p2", "$1.00"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThrows(TimeoutException.class, () -> third.get(200, TimeUnit.MILLISECONDS));
+
+        gate.countDown();
+        third.get(5, TimeUnit.SECONDS);
+        pipeline.awaitIdle();
+        assertEquals(3, emitted.size());
+    }
+
+    @Test
+    public void resetDropsProductsStillInFlight() throws InterruptedException {
+        pipeline = gated(16, 1);
+        submit(raw("stale", "$1.00"));
+        pipeline.reset();
+        gate.countDown();
+
+        // The stale product must not emit or drive the in-flight count below zero
+        submit(raw("fresh", "$1.00"));
+        pipeline.awaitIdle();
+        assertTrue(pipeline.awaitIdle(0, TimeUnit.MILLISECONDS));
+        submit(raw("later", "$1.00"));
+        pipeline.awaitIdle();
+
+        assertEquals(Arrays.asList("fresh", "later"), emittedNames());
+    }
+
+    @Test
+    public void stageThroughputUsesWallClockTime() throws InterruptedException {
+        pipeline = new ProductPipeline(16, 4, emitted::add) {
+            @Override
+            JBLScrapper.Product normalise(ProductPipeline.RawProduct raw) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.normalise(raw);
+            }
+        };
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            submit(raw("p" + i, "$1.00"));
+        }
+        pipeline.awaitIdle();
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        ProductPipeline.StageMetrics process = pipeline.getStageMetrics().get(1);
+        assertEquals(4, process.getItems());
+        // Four parallel 50 ms items are not 20 items/s; they cannot beat the elapsed time either
+        assertTrue(process.getItemsPerSecond() > 30, "items/s " + process.getItemsPerSecond());
+        assertTrue(process.getItemsPerSecond() >= 4 / elapsedSeconds);
+        assertTrue(process.getAverageMillis() >= 50);
+    }
+
+    @Test
+    public void parsesDisplayedPrices() {
+        assertEquals(1299.98, ProductPipeline.parsePrice("$1,299.98"));
+        assertEquals(69.0, ProductPipeline.parsePrice(" CA$69 "));
+        assertEquals(0.5, ProductPipeline.parsePrice(".50"));
+        assertNull(ProductPipeline.parsePrice(null));
+        assertNull(ProductPipeline.parsePrice(""));
+        assertNull(ProductPipeline.parsePrice("N/A"));
+        assertNull(ProductPipeline.parsePrice("Sold out"));
+        // A price range or stray dots are not a single number
+        assertNull(ProductPipeline.parsePrice("$49.98 - $69.98"));
+        assertNull(ProductPipeline.parsePrice("..."));
+    }
+}
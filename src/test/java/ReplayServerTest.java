@@ -0,0 +1,83 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayServerTest {
+
+    private static final String SALE = "https://ca.jbl.com/en_CA/sale/";
+
+    @TempDir
+    Path directory;
+
+    private PageArchive archive;
+    private ReplayServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        archive = new PageArchive(directory.toFile(), new ObjectMapper());
+        archive.record(SALE, 403,
+                Collections.singletonMap("content-type", Arrays.asList("text/html; charset=iso-8859-1")),
+                null, "<html><img src=\"https://ca.jbl.com/x.png\">Caf\u00e9</html>");
+        archive.record("https://ca.jbl.com/en_CA/raw-only/", 404, null, "<html>gone</html>", null);
+
+        server = new ReplayServer(archive, 0);
+        server.start(0);
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String url) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void servesRenderedDomUnderTheOriginalPath() throws Exception {
+        String replayUrl = server.toReplayUrl(SALE);
+        assertTrue(replayUrl.startsWith("http://127.0.0.1:"));
+        assertTrue(replayUrl.endsWith("/en_CA/sale/"));
+
+        HttpResponse<String> response = get(replayUrl);
+        // The browser DOM is authoritative, so the side request's 403 is not replayed
+        assertEquals(200, response.statusCode());
+        assertEquals("<html><img src=\"https://ca.jbl.com/x.png\">Caf\u00e9</html>", response.body());
+        assertEquals("text/html; charset=utf-8", response.headers().firstValue("content-type").orElse(null));
+    }
+
+    @Test
+    public void blocksScriptsAndRequestsLeavingLoopback() throws Exception {
+        String policy = get(server.toReplayUrl(SALE)).headers().firstValue("content-security-policy").orElse("");
+        assertTrue(policy.contains("default-src 'self'"), policy);
+        assertTrue(policy.contains("script-src 'none'"), policy);
+    }
+
+    @Test
+    public void fallsBackToRawBodyWithItsStatus() throws Exception {
+        HttpResponse<String> response = get(server.getBaseUrl() + "/en_CA/raw-only");
+        assertEquals(404, response.statusCode());
+        assertEquals("<html>gone</html>", response.body());
+    }
+
+    @Test
+    public void unknownPathIsNotFound() throws Exception {
+        HttpResponse<String> response = get(server.getBaseUrl() + "/on/demandware.static/x.css");
+        assertEquals(404, response.statusCode());
+        assertEquals("Not in archive", response.body());
+    }
+}